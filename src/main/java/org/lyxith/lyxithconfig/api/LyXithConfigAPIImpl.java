@@ -6,11 +6,24 @@ import java.nio.file.Path;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import org.lyxith.lyxithconfig.LyxithConfig;
 
-import static org.lyxith.lyxithconfig.LyxithConfig.configPath;
-import static org.lyxith.lyxithconfig.LyxithConfig.logger;
 public class LyXithConfigAPIImpl implements LyXithConfigAPI{
+    // 使用同名Logger，避免在无游戏环境下触发LyxithConfig的静态初始化
+    private static final Logger logger = Logger.getLogger(LyxithConfig.modId);
     private final Map<String, LyXithConfigNode> configs = new ConcurrentHashMap<>();
+    private final Path configPath;
+
+    public LyXithConfigAPIImpl() {
+        this(LyxithConfig.configPath);
+    }
+
+    // 指定配置根目录，用于压力测试等无游戏环境的场景
+    LyXithConfigAPIImpl(Path configPath) {
+        this.configPath = configPath;
+    }
 
     @Override
     public Path getConfigRootPath() {
@@ -132,6 +145,11 @@ public class LyXithConfigAPIImpl implements LyXithConfigAPI{
         Optional<LyXithConfigNodeImpl> selNode = configNode.getNode(nodePath);
         return selNode.flatMap(node -> node.getValue(type));
     }
+    // 获取内存中已加载的配置节点
+    LyXithConfigNode getLoadedConfig(String modId, String configName) {
+        return configs.get(modId+"_"+configName);
+    }
+
     private LyXithConfigNode loadConfigFromJson(Path configPath) {
         LyXithConfigNode instance = new LyXithConfigNodeImpl();
         try {
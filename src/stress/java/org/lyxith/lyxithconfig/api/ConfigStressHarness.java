@@ -0,0 +1,511 @@
+package org.lyxith.lyxithconfig.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.lyxith.lyxithconfig.LyxithConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/*
+ * 无头多线程压力测试：在临时配置目录中按给定比例混合执行 set/get/add/node/save/load，
+ * 输出吞吐量、延迟百分位以及不变量违规（异常、结构损坏、保存/加载往返不一致）。
+ * node 操作在共享的 values 容器下增删子节点，用于覆盖子节点Map的并发修改。
+ * 配置树丢失初始结构时每次都记录违规，并在计时区间之外重新写入初始配置，该次操作的样本不计入延迟统计。
+ *
+ * 运行：gradle stress --args="--threads=8 --duration=10 --mix=set:35,get:35,add:10,node:10,save:5,load:5"
+ * 存在违规时以退出码1结束。
+ */
+public class ConfigStressHarness {
+    private static final String CONFIG_NAME = "config";
+    private static final String VALUES_PATH = "values";
+    private static final String LIST_PATH = "list";
+    private static final String SEEDED_PREFIX = "k";
+    private static final String TRANSIENT_PREFIX = "t";
+    private static final int SAMPLE_LIMIT = 3;
+    // LogManager只弱引用Logger，需保持强引用以免级别设置丢失
+    private static final Logger API_LOGGER = Logger.getLogger(LyxithConfig.modId);
+
+    private final Options options;
+    private final LyXithConfigAPIImpl api;
+    private final Object[] modLocks;
+    private final Map<String, LongAdder> violations = new ConcurrentHashMap<>();
+    private final Map<String, Long> firstSeen = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> samples = new ConcurrentHashMap<>();
+    private volatile long runStart = System.nanoTime();
+
+    private ConfigStressHarness(Options options, Path configRoot) {
+        this.options = options;
+        this.api = new LyXithConfigAPIImpl(configRoot);
+        this.modLocks = new Object[options.mods];
+        for (int i = 0; i < modLocks.length; i++) {
+            modLocks[i] = new Object();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        // 违规由压力测试自行统计（SET也会检查节点是否存在），避免日志刷屏影响计时
+        API_LOGGER.setLevel(Level.SEVERE);
+
+        Path configRoot = options.dir != null ? options.dir : Files.createTempDirectory("lyxithconfig-stress");
+        Files.createDirectories(configRoot);
+        int violationCount;
+        try {
+            violationCount = new ConfigStressHarness(options, configRoot).run();
+        } finally {
+            if (options.dir == null && !options.keep) {
+                deleteRecursively(configRoot);
+            }
+        }
+        System.exit(violationCount > 0 ? 1 : 0);
+    }
+
+    private int run() throws InterruptedException {
+        System.out.printf("LyXithConfig stress: threads=%d warmup=%ds duration=%ds mods=%d keys=%d mix=%s dir=%s%n",
+                options.threads, options.warmupSeconds, options.durationSeconds, options.mods, options.keys,
+                options.mixString(), api.getConfigRootPath());
+        for (int i = 0; i < options.mods; i++) {
+            prepareConfig(modId(i));
+        }
+
+        CountDownLatch ready = new CountDownLatch(options.threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Worker[] workers = new Worker[options.threads];
+        Thread[] threads = new Thread[options.threads];
+        for (int i = 0; i < options.threads; i++) {
+            workers[i] = new Worker(i, ready, start);
+            threads[i] = new Thread(workers[i], "stress-worker-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        ready.await();
+        runStart = System.nanoTime();
+        long measureStart = runStart + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long measureEnd = measureStart + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        for (Worker worker : workers) {
+            worker.measureStart = measureStart;
+            worker.measureEnd = measureEnd;
+        }
+        start.countDown();
+
+        boolean allFinished = true;
+        long joinDeadline = measureEnd + TimeUnit.SECONDS.toNanos(10);
+        for (Thread thread : threads) {
+            long remaining = Math.max(1, TimeUnit.NANOSECONDS.toMillis(joinDeadline - System.nanoTime()));
+            thread.join(remaining);
+            if (thread.isAlive()) {
+                allFinished = false;
+                violation("worker: did not finish", thread.getName() + " still running 10s after the deadline");
+            }
+        }
+
+        // 线程卡死时内部结构可能已损坏，跳过最终校验以免主线程也被卡住
+        if (allFinished) {
+            for (int i = 0; i < options.mods; i++) {
+                verifyFinalState(modId(i));
+            }
+        }
+
+        report(workers, measureStart);
+        return violations.values().stream().mapToInt(LongAdder::intValue).sum();
+    }
+
+    private void prepareConfig(String modId) {
+        api.createModConfig(modId, CONFIG_NAME);
+        LyXithConfigNodeImpl root = new LyXithConfigNodeImpl();
+        for (int k = 0; k < options.keys; k++) {
+            root.initNode(keyPath(k), false, k);
+        }
+        root.initNode(LIST_PATH, false, new ArrayList<>(List.of(0)));
+        api.saveConfig(modId, CONFIG_NAME, root);
+    }
+
+    // 返回需要在计时区间之外处理的异常观察结果，正常时返回null
+    private Recovery execute(StressOperation operation, int workerIndex, ThreadLocalRandom random) {
+        int mod = random.nextInt(options.mods);
+        String modId = modId(mod);
+        switch (operation) {
+            case SET -> {
+                LyXithConfigNode root = api.getLoadedConfig(modId, CONFIG_NAME);
+                String path = keyPath(random.nextInt(options.keys));
+                // setValue在节点不存在时只打印警告，这里显式检查
+                if (root.getNode(path).isEmpty()) {
+                    return new Recovery(mod, root, "set: missing node", modId + ":" + path);
+                }
+                api.setValue(modId, path, random.nextInt());
+            }
+            case GET -> {
+                LyXithConfigNode root = api.getLoadedConfig(modId, CONFIG_NAME);
+                String path = keyPath(random.nextInt(options.keys));
+                if (api.getValue(modId, path, Integer.class).isEmpty()) {
+                    return new Recovery(mod, root, "get: missing value", modId + ":" + path);
+                }
+            }
+            case ADD -> {
+                LyXithConfigNode root = api.getLoadedConfig(modId, CONFIG_NAME);
+                Optional<LyXithConfigNodeImpl> list = root.getNode(LIST_PATH);
+                if (list.isEmpty()) {
+                    return new Recovery(mod, root, "add: missing list node", modId + ":" + LIST_PATH);
+                }
+                LyXithConfigNodeImpl node = list.get();
+                node.addElement(random.nextInt());
+                // 限制列表长度，避免保存耗时随运行时间增长
+                if (node.length() > options.listCap) {
+                    node.delElement(0);
+                }
+            }
+            case NODE -> {
+                // 每个线程只操作自己的临时键，冲突只可能来自共享的 values 子节点Map
+                String path = VALUES_PATH + "." + TRANSIENT_PREFIX + workerIndex + "_" + random.nextInt(options.keys);
+                LyXithConfigNode root = api.getLoadedConfig(modId, CONFIG_NAME);
+                if (random.nextBoolean()) {
+                    root.initNode(path, false, random.nextInt());
+                } else {
+                    root.delNode(path);
+                }
+            }
+            case SAVE -> api.saveConfig(modId);
+            case LOAD -> api.loadConfig(modId);
+        }
+        return null;
+    }
+
+    // 在计时区间之外调用：配置树丢失初始结构时记录违规并重新写入初始配置；结构完好则记录单次症状
+    private void recover(Recovery recovery) {
+        String modId = modId(recovery.mod());
+        synchronized (modLocks[recovery.mod()]) {
+            if (api.getLoadedConfig(modId, CONFIG_NAME) != recovery.observed()) {
+                return;
+            }
+            Optional<String> problem;
+            try {
+                problem = structureProblem(recovery.observed(), false);
+            } catch (Throwable t) {
+                // 检查本身与其他写线程竞争，结果不可信，不重新写入以免丢弃其他线程的修改
+                violation("check: inconclusive " + t.getClass().getSimpleName(), modId + ": " + recovery.symptom());
+                return;
+            }
+            if (problem.isPresent()) {
+                violation("collapse: seeded structure lost", modId + ": " + problem.get());
+                prepareConfig(modId);
+            } else {
+                violation(recovery.symptom(), recovery.detail());
+            }
+        }
+    }
+
+    // 与初始结构对比：初始键必须存在且为整数，其余键只能是临时键，列表节点必须保留元素
+    // 遍历时与写线程竞争可能抛出异常，由调用方视为无法判定
+    private Optional<String> structureProblem(LyXithConfigNode root, boolean strict) {
+        Optional<LyXithConfigNodeImpl> values = root.getNode(VALUES_PATH);
+        if (values.isEmpty()) {
+            return Optional.of("missing " + VALUES_PATH + " node");
+        }
+        Map<String, LyXithConfigNodeImpl> children = new HashMap<>(values.get().getChildren());
+        for (int k = 0; k < options.keys; k++) {
+            LyXithConfigNodeImpl child = children.get(SEEDED_PREFIX + k);
+            if (child == null) {
+                return Optional.of("missing " + keyPath(k));
+            }
+            if (child.getValue(Integer.class).isEmpty()) {
+                return Optional.of(keyPath(k) + " is not an integer");
+            }
+        }
+        for (String key : children.keySet()) {
+            if (!key.startsWith(SEEDED_PREFIX) && !key.startsWith(TRANSIENT_PREFIX)) {
+                return Optional.of("unexpected key " + VALUES_PATH + "." + key);
+            }
+        }
+
+        Optional<LyXithConfigNodeImpl> list = root.getNode(LIST_PATH);
+        if (list.isEmpty()) {
+            return Optional.of("missing " + LIST_PATH + " node");
+        }
+        if (!(list.get().getValue() instanceof List<?> elements) || elements.isEmpty()) {
+            return Optional.of(LIST_PATH + " node lost its elements");
+        }
+        if (strict) {
+            List<?> copy = new ArrayList<>(elements);
+            if (copy.size() > options.listCap) {
+                return Optional.of(LIST_PATH + " has " + copy.size() + " elements, cap is " + options.listCap);
+            }
+            for (Object element : copy) {
+                if (!(element instanceof Integer)) {
+                    return Optional.of(LIST_PATH + " contains non-integer " + element);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void verifyFinalState(String modId) {
+        try {
+            LyXithConfigNode before = api.getLoadedConfig(modId, CONFIG_NAME);
+            structureProblem(before, true).ifPresent(problem -> violation("final: structure mismatch", modId + ": " + problem));
+
+            // 保存后重新加载，内存中的树与磁盘上的树应完全一致，且仍符合初始结构
+            JsonElement expected = JsonParser.parseString(before.toString());
+            api.saveConfig(modId);
+            api.loadConfig(modId);
+            LyXithConfigNode after = api.getLoadedConfig(modId, CONFIG_NAME);
+            if (!expected.equals(JsonParser.parseString(after.toString()))) {
+                violation("roundtrip: save/load mismatch", modId);
+            }
+            structureProblem(after, true).ifPresent(problem -> violation("roundtrip: structure mismatch", modId + ": " + problem));
+        } catch (Throwable t) {
+            violation("final: " + t.getClass().getSimpleName(), modId + ": " + t.getMessage());
+        }
+    }
+
+    private void violation(String kind, String detail) {
+        violations.computeIfAbsent(kind, k -> new LongAdder()).increment();
+        firstSeen.putIfAbsent(kind, System.nanoTime() - runStart);
+        List<String> kindSamples = samples.computeIfAbsent(kind, k -> Collections.synchronizedList(new ArrayList<>()));
+        if (kindSamples.size() < SAMPLE_LIMIT) {
+            kindSamples.add(detail.lines().findFirst().orElse(""));
+        }
+    }
+
+    private void report(Worker[] workers, long measureStart) {
+        long lastEnd = measureStart;
+        for (Worker worker : workers) {
+            lastEnd = Math.max(lastEnd, worker.lastMeasuredEnd);
+        }
+        double seconds = Math.max(lastEnd - measureStart, 1) / 1e9;
+        LatencyHistogram all = new LatencyHistogram();
+        long totalErrors = 0;
+
+        System.out.println();
+        System.out.printf("Measured window: %.3fs (errors and violations also cover warmup)%n", seconds);
+        System.out.printf("%-6s %10s %8s %12s %10s %10s %10s %10s %10s %10s%n",
+                "op", "count", "errors", "ops/s", "mean(us)", "p50(us)", "p90(us)", "p99(us)", "p99.9(us)", "max(us)");
+        for (StressOperation operation : StressOperation.values()) {
+            LatencyHistogram merged = new LatencyHistogram();
+            long errors = 0;
+            for (Worker worker : workers) {
+                merged.merge(worker.latencies[operation.ordinal()]);
+                errors += worker.errors[operation.ordinal()];
+            }
+            if (merged.count() == 0 && errors == 0) {
+                continue;
+            }
+            all.merge(merged);
+            totalErrors += errors;
+            printRow(operation.key(), merged, errors, seconds);
+        }
+        printRow("total", all, totalErrors, seconds);
+
+        System.out.println();
+        if (violations.isEmpty()) {
+            System.out.println("Invariant violations: none");
+            return;
+        }
+        System.out.println("Invariant violations:");
+        new TreeMap<>(violations).forEach((kind, count) -> {
+            System.out.printf("  %-40s %8d   first at +%.3fs%n", kind, count.sum(), firstSeen.get(kind) / 1e9);
+            synchronized (samples.get(kind)) {
+                for (String sample : samples.get(kind)) {
+                    System.out.println("      e.g. " + sample);
+                }
+            }
+        });
+    }
+
+    private static void printRow(String name, LatencyHistogram histogram, long errors, double seconds) {
+        System.out.printf("%-6s %10d %8d %12.1f %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                name, histogram.count(), errors, histogram.count() / seconds, histogram.mean() / 1000.0,
+                micros(histogram.percentile(50)), micros(histogram.percentile(90)),
+                micros(histogram.percentile(99)), micros(histogram.percentile(99.9)),
+                micros(histogram.max()));
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    private static String modId(int index) {
+        return "stress" + index;
+    }
+
+    private static String keyPath(int index) {
+        return VALUES_PATH + "." + SEEDED_PREFIX + index;
+    }
+
+    private static void deleteRecursively(Path root) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ignored) {
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Can't delete stress dir " + root + ": " + e.getMessage());
+        }
+    }
+
+    private record Recovery(int mod, LyXithConfigNode observed, String symptom, String detail) {
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+        private final CountDownLatch ready;
+        private final CountDownLatch start;
+        private final LatencyHistogram[] latencies = new LatencyHistogram[StressOperation.values().length];
+        private final long[] errors = new long[StressOperation.values().length];
+        private volatile long measureStart;
+        private volatile long measureEnd;
+        private volatile long lastMeasuredEnd;
+
+        private Worker(int index, CountDownLatch ready, CountDownLatch start) {
+            this.index = index;
+            this.ready = ready;
+            this.start = start;
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new LatencyHistogram();
+            }
+        }
+
+        @Override
+        public void run() {
+            ready.countDown();
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long from = measureStart;
+            long until = measureEnd;
+            long now = System.nanoTime();
+            while (now < until) {
+                StressOperation operation = options.pick(random);
+                Recovery recovery = null;
+                try {
+                    recovery = execute(operation, index, random);
+                } catch (Throwable t) {
+                    // 错误与违规一样覆盖整个运行期（含预热）
+                    errors[operation.ordinal()]++;
+                    violation(operation.key() + ": " + t.getClass().getSimpleName(),
+                            Thread.currentThread().getName() + ": " + t.getMessage());
+                }
+                long end = System.nanoTime();
+                // 只统计完全落在测量窗口内且观察到正常配置的操作
+                if (recovery == null && now >= from && end <= until) {
+                    latencies[operation.ordinal()].record(end - now);
+                    lastMeasuredEnd = end;
+                }
+                if (recovery != null) {
+                    try {
+                        recover(recovery);
+                    } catch (Throwable t) {
+                        // 重新写入时保存新树，仍可能与其他线程的写操作竞争
+                        violation("reseed: " + t.getClass().getSimpleName(),
+                                Thread.currentThread().getName() + ": " + t.getMessage());
+                    }
+                    end = System.nanoTime();
+                }
+                now = end;
+            }
+        }
+    }
+
+    private static final class Options {
+        private int threads = 8;
+        private int warmupSeconds = 2;
+        private int durationSeconds = 10;
+        private int mods = 2;
+        private int keys = 32;
+        private int listCap = 256;
+        private Path dir;
+        private boolean keep;
+        private final int[] weights = {35, 35, 10, 10, 5, 5};
+        private int[] cumulative;
+
+        private static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+                String value = pair.length > 1 ? pair[1] : "";
+                switch (pair[0]) {
+                    case "threads" -> options.threads = positive(pair[0], value);
+                    case "warmup" -> options.warmupSeconds = Math.max(0, Integer.parseInt(value));
+                    case "duration" -> options.durationSeconds = positive(pair[0], value);
+                    case "mods" -> options.mods = positive(pair[0], value);
+                    case "keys" -> options.keys = positive(pair[0], value);
+                    case "list-cap" -> options.listCap = positive(pair[0], value);
+                    case "dir" -> options.dir = Path.of(value);
+                    case "keep" -> options.keep = true;
+                    case "mix" -> options.parseMix(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + arg
+                            + " (expected --threads, --warmup, --duration, --mods, --keys, --list-cap, --mix, --dir, --keep)");
+                }
+            }
+            options.cumulative = new int[options.weights.length];
+            int sum = 0;
+            for (int i = 0; i < options.weights.length; i++) {
+                sum += options.weights[i];
+                options.cumulative[i] = sum;
+            }
+            if (sum <= 0) {
+                throw new IllegalArgumentException("Operation mix must have a positive total weight");
+            }
+            return options;
+        }
+
+        // 格式：set:35,get:35,add:10,node:10,save:5,load:5，未列出的操作权重为0
+        private void parseMix(String mix) {
+            Arrays.fill(weights, 0);
+            for (String entry : mix.split(",")) {
+                String[] pair = entry.trim().split(":", 2);
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Invalid mix entry: " + entry);
+                }
+                int weight = Integer.parseInt(pair[1].trim());
+                if (weight < 0) {
+                    throw new IllegalArgumentException("Mix weight cannot be negative: " + entry);
+                }
+                weights[StressOperation.fromKey(pair[0].trim()).ordinal()] = weight;
+            }
+        }
+
+        private StressOperation pick(ThreadLocalRandom random) {
+            int roll = random.nextInt(cumulative[cumulative.length - 1]);
+            for (int i = 0; i < cumulative.length; i++) {
+                if (roll < cumulative[i]) {
+                    return StressOperation.values()[i];
+                }
+            }
+            throw new IllegalStateException("Unreachable");
+        }
+
+        private String mixString() {
+            StringJoiner joiner = new StringJoiner(",");
+            for (StressOperation operation : StressOperation.values()) {
+                joiner.add(operation.key() + ":" + weights[operation.ordinal()]);
+            }
+            return joiner.toString();
+        }
+
+        private static int positive(String name, String value) {
+            int parsed = Integer.parseInt(value);
+            if (parsed <= 0) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return parsed;
+        }
+    }
+}
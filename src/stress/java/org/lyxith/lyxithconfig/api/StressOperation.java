@@ -0,0 +1,26 @@
+package org.lyxith.lyxithconfig.api;
+
+import java.util.Locale;
+
+// 压力测试中可混合执行的操作
+public enum StressOperation {
+    SET,
+    GET,
+    ADD,
+    NODE,
+    SAVE,
+    LOAD;
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static StressOperation fromKey(String key) {
+        for (StressOperation operation : values()) {
+            if (operation.key().equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + key);
+    }
+}